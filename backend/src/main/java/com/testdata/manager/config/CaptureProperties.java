@@ -0,0 +1,35 @@
+package com.testdata.manager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "capture")
+public class CaptureProperties {
+    private boolean enabled = true;
+    // Fraction of successful exchanges to keep, 0.0 - 1.0
+    private double sampleRate = 0.1;
+    // Keep only exchanges with a 4xx/5xx status
+    private boolean errorsOnly = false;
+    // Keep every 4xx/5xx exchange regardless of the sample rate
+    private boolean alwaysCaptureErrors = true;
+    // Per-route sample rates keyed by path prefix, longest prefix wins
+    private Map<String, Double> routes = new LinkedHashMap<>();
+    private int maxBodyChars = 4096;
+    // Rounded up to a power of two
+    private int bufferSize = 1024;
+    private String directory = "logs/capture";
+    private long maxFileBytes = 10 * 1024 * 1024;
+    private int maxFiles = 10;
+    // Request and response headers whose values are masked in the capture files, matched case-insensitively
+    private List<String> redactHeaders = new ArrayList<>(List.of(
+            "Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie",
+            "X-Api-Key", "Api-Key", "X-Auth-Token", "X-Amz-Security-Token"));
+}
@@ -0,0 +1,22 @@
+package com.testdata.manager.controller;
+
+import com.testdata.manager.service.capture.ExchangeCaptureService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/capture")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class CaptureController {
+
+    private final ExchangeCaptureService exchangeCaptureService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(exchangeCaptureService.getStats());
+    }
+}
@@ -0,0 +1,27 @@
+package com.testdata.manager.controller;
+
+import com.testdata.manager.model.flow.FlowGraphRequest;
+import com.testdata.manager.model.flow.FlowGraphResult;
+import com.testdata.manager.service.TransactionGraphExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/flowchart")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class FlowchartController {
+
+    private final TransactionGraphExecutor transactionGraphExecutor;
+
+    @PostMapping("/execute")
+    public ResponseEntity<FlowGraphResult> executeGraph(@RequestBody FlowGraphRequest request) {
+        log.info("Executing flowchart with {} nodes and {} edges",
+            request.getNodes() != null ? request.getNodes().size() : 0,
+            request.getEdges() != null ? request.getEdges().size() : 0);
+        return ResponseEntity.ok(transactionGraphExecutor.execute(request));
+    }
+}
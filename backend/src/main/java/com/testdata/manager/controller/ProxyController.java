@@ -9,8 +9,11 @@ import org.slf4j.LoggerFactory;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.springframework.web.client.HttpStatusCodeException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testdata.manager.service.capture.ExchangeCaptureService;
+import org.springframework.beans.factory.annotation.Value;
 
 @RestController
 @RequestMapping("/api/proxy")
@@ -19,13 +22,18 @@ public class ProxyController {
     private static final Logger logger = LoggerFactory.getLogger(ProxyController.class);
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
-    private static final String TARGET_API = "https://api.int.group-vehicle-file.com";
+    private final ExchangeCaptureService exchangeCaptureService;
+    private final String targetApi;
     private static final String BEARER_PREFIX = "Bearer ";
 
     @Autowired
-    public ProxyController(RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public ProxyController(RestTemplate restTemplate, ObjectMapper objectMapper,
+                           ExchangeCaptureService exchangeCaptureService,
+                           @Value("${proxy.target-api:https://api.int.group-vehicle-file.com}") String targetApi) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.exchangeCaptureService = exchangeCaptureService;
+        this.targetApi = targetApi;
     }
 
     private String formatAuthorizationHeader(String token) {
@@ -48,15 +56,34 @@ public class ProxyController {
             HttpMethod method,
             @RequestHeader HttpHeaders headers,
             HttpServletRequest request) {
-        
+
+        long start = System.nanoTime();
+        // Get the path after /api/proxy
+        String path = request.getRequestURI();
+        path = path.substring(path.indexOf("/api/proxy") + "/api/proxy".length());
+        String targetUrl = targetApi + path;
+        // Create new headers
+        HttpHeaders proxyHeaders = new HttpHeaders();
+
+        ResponseEntity<String> result = null;
+        try {
+            result = forwardRequest(body, method, headers, targetUrl, proxyHeaders);
+            return result;
+        } finally {
+            // Record what the client actually receives, including locally generated errors
+            if (result != null) {
+                exchangeCaptureService.capture(method.name(), path, targetUrl, result.getStatusCode().value(),
+                        elapsedMillis(start), proxyHeaders, body, result.getHeaders(), result.getBody());
+            } else {
+                exchangeCaptureService.capture(method.name(), path, targetUrl, HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        elapsedMillis(start), proxyHeaders, body, null, null);
+            }
+        }
+    }
+
+    private ResponseEntity<String> forwardRequest(String body, HttpMethod method, HttpHeaders headers,
+                                                  String targetUrl, HttpHeaders proxyHeaders) {
         try {
-            // Get the path after /api/proxy
-            String path = request.getRequestURI();
-            path = path.substring(path.indexOf("/api/proxy") + "/api/proxy".length());
-            
-            // Create new headers
-            HttpHeaders proxyHeaders = new HttpHeaders();
-            
             // Set Accept header to explicitly request JSON
             List<MediaType> acceptTypes = Collections.singletonList(MediaType.APPLICATION_JSON);
             proxyHeaders.setAccept(acceptTypes);
@@ -90,9 +117,7 @@ public class ProxyController {
                 }
             });
             
-            String targetUrl = TARGET_API + path;
             logger.info("Proxying request to: {} with method: {}", targetUrl, method);
-            logger.debug("Request headers: {}", proxyHeaders);
 
             HttpEntity<String> requestEntity = new HttpEntity<>(body, proxyHeaders);
             
@@ -108,7 +133,6 @@ public class ProxyController {
             
             logger.info("Received response with status: {} and content type: {}", 
                        response.getStatusCode(), contentType);
-            logger.debug("Response body: {}", responseBody);
 
             // Verify JSON response
             if (responseBody != null) {
@@ -144,7 +168,7 @@ public class ProxyController {
                     .body(responseBody);
                     
         } catch (HttpStatusCodeException e) {
-            logger.error("HTTP error from target API: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            logger.error("HTTP error from target API: {} - {}", e.getStatusCode(), e.getStatusText());
             
             // Create error response headers
             HttpHeaders errorHeaders = new HttpHeaders();
@@ -176,4 +200,8 @@ public class ProxyController {
                 .body("{\"error\": \"Internal Server Error\", \"message\": \"" + e.getMessage() + "\"}");
         }
     }
-} 
\ No newline at end of file
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
\ No newline at end of file
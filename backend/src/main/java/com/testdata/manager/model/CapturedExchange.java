@@ -0,0 +1,22 @@
+package com.testdata.manager.model;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class CapturedExchange {
+    private long timestamp;
+    private String method;
+    private String path;
+    private String targetUrl;
+    private int status;
+    private long durationMillis;
+    private Map<String, List<String>> requestHeaders;
+    private String requestBody;
+    private int requestBodyLength;
+    private Map<String, List<String>> responseHeaders;
+    private String responseBody;
+    private int responseBodyLength;
+}
@@ -0,0 +1,23 @@
+package com.testdata.manager.model.flow;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class EdgeExecutionResult {
+    private String edgeId;
+    private String transactionId;
+    private String method;
+    private String url;
+    // success, failed or skipped (an upstream edge did not succeed)
+    private String status;
+    private int httpStatus;
+    private Object responseBody;
+    private String error;
+    private List<String> dependsOn = new ArrayList<>();
+    private long startOffsetMillis;
+    private long durationMillis;
+    private long finishOffsetMillis;
+}
@@ -0,0 +1,17 @@
+package com.testdata.manager.model.flow;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class FlowEdge {
+    private String id;
+    private String source;
+    private String target;
+    private String transactionId;
+    private String operation;
+    private String path;
+    private Object requestBody;
+    private Map<String, String> headers;
+}
@@ -0,0 +1,14 @@
+package com.testdata.manager.model.flow;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class FlowGraphRequest {
+    private List<FlowNode> nodes = new ArrayList<>();
+    private List<FlowEdge> edges = new ArrayList<>();
+    // Optional per-run cap, bounded by flowchart.executor.max-parallelism
+    private Integer maxParallelism;
+}
@@ -0,0 +1,17 @@
+package com.testdata.manager.model.flow;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class FlowGraphResult {
+    private List<List<String>> stages = new ArrayList<>();
+    private List<EdgeExecutionResult> edges = new ArrayList<>();
+    private List<String> criticalPath = new ArrayList<>();
+    private long criticalPathMillis;
+    private long sumOfEdgeMillis;
+    private long wallClockMillis;
+    private int parallelism;
+}
@@ -0,0 +1,10 @@
+package com.testdata.manager.model.flow;
+
+import lombok.Data;
+
+@Data
+public class FlowNode {
+    private String id;
+    private String label;
+    private String type;
+}
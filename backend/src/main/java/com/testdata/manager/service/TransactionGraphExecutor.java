@@ -0,0 +1,652 @@
+package com.testdata.manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.testdata.manager.model.flow.EdgeExecutionResult;
+import com.testdata.manager.model.flow.FlowEdge;
+import com.testdata.manager.model.flow.FlowGraphRequest;
+import com.testdata.manager.model.flow.FlowGraphResult;
+import com.testdata.manager.model.flow.FlowNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the transactions of a flowchart as a dependency graph.
+ *
+ * An edge depends on every edge that ends in its source node, so independent
+ * branches run concurrently while chains keep their order. Upstream responses
+ * can be referenced from downstream paths and bodies with
+ * {@code {{<edgeId|transactionId>.<field>.<field>}}}; the existing
+ * {@code {node-label-source}} and {@code {node-label-target}} placeholders are
+ * resolved as well. A reference must name an upstream edge, otherwise the
+ * request is rejected; if the referenced field is missing at run time the edge
+ * fails without being sent. Values are percent-encoded when substituted into a
+ * path and JSON-escaped when substituted into a body, so upstream data cannot
+ * change the structure of the request. Paths are relative to the configured
+ * base URL; an absolute URL is only accepted when its origin is listed in
+ * {@code flowchart.executor.allowed-origins}.
+ */
+@Slf4j
+@Service
+public class TransactionGraphExecutor {
+
+    private static final Pattern UPSTREAM_REFERENCE = Pattern.compile("\\{\\{\\s*([^.}\\s]+)((?:\\.[^.}\\s]+)*)\\s*}}");
+    private static final String STATUS_SUCCESS = "success";
+    private static final String STATUS_FAILED = "failed";
+    private static final String STATUS_SKIPPED = "skipped";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Set<String> allowedOrigins = new HashSet<>();
+    private final int maxParallelism;
+    private final long timeoutSeconds;
+    private final ExecutorService executor;
+
+    public TransactionGraphExecutor(
+            RestTemplate restTemplate,
+            ObjectMapper objectMapper,
+            @Value("${flowchart.executor.base-url:http://localhost:${server.port:8080}}") String baseUrl,
+            @Value("${flowchart.executor.allowed-origins:}") List<String> allowedOrigins,
+            @Value("${flowchart.executor.max-parallelism:8}") int maxParallelism,
+            @Value("${flowchart.executor.timeout-seconds:300}") long timeoutSeconds) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.allowedOrigins.add(origin(UriComponentsBuilder.fromUriString(this.baseUrl).build()));
+        for (String allowed : allowedOrigins) {
+            if (!allowed.isBlank()) {
+                this.allowedOrigins.add(origin(UriComponentsBuilder.fromUriString(allowed.trim()).build()));
+            }
+        }
+        this.maxParallelism = Math.max(1, maxParallelism);
+        this.timeoutSeconds = timeoutSeconds;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.maxParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "flow-graph-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public FlowGraphResult execute(FlowGraphRequest request) {
+        GraphPlan plan = plan(request);
+        int parallelism = request.getMaxParallelism() != null
+                ? Math.max(1, Math.min(request.getMaxParallelism(), maxParallelism))
+                : maxParallelism;
+
+        log.info("Executing flow graph with {} edges in {} stages, parallelism {}",
+                plan.order.size(), plan.stages.size(), parallelism);
+
+        GraphRun run = new GraphRun(plan, parallelism);
+        run.start();
+        try {
+            run.completion.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            run.cancel();
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                    "Transaction graph did not finish within " + timeoutSeconds + " s");
+        } catch (InterruptedException e) {
+            run.cancel();
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while running transaction graph");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Transaction graph failed", e.getCause());
+        }
+
+        FlowGraphResult result = new FlowGraphResult();
+        for (FlowEdge edge : plan.order) {
+            result.getEdges().add(run.results.get(edge.getId()));
+        }
+        result.setWallClockMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - run.startNanos));
+        result.setStages(plan.stages);
+        result.setParallelism(parallelism);
+        result.setSumOfEdgeMillis(result.getEdges().stream().mapToLong(EdgeExecutionResult::getDurationMillis).sum());
+        computeCriticalPath(plan, result);
+
+        log.info("Flow graph finished in {} ms (critical path {} ms, sequential sum {} ms)",
+                result.getWallClockMillis(), result.getCriticalPathMillis(), result.getSumOfEdgeMillis());
+        return result;
+    }
+
+    private EdgeExecutionResult runEdge(FlowEdge edge, GraphPlan plan, Map<String, EdgeExecutionResult> results,
+                                        long graphStart) {
+        EdgeExecutionResult result = new EdgeExecutionResult();
+        result.setEdgeId(edge.getId());
+        result.setTransactionId(edge.getTransactionId());
+        result.setDependsOn(plan.dependencies.get(edge.getId()));
+
+        Map<String, EdgeExecutionResult> ancestors = new HashMap<>();
+        for (String ancestorId : plan.ancestors.get(edge.getId())) {
+            ancestors.put(ancestorId, results.get(ancestorId));
+        }
+
+        boolean upstreamFailed = result.getDependsOn().stream()
+                .anyMatch(dep -> !STATUS_SUCCESS.equals(ancestors.get(dep).getStatus()));
+        if (upstreamFailed) {
+            result.setStatus(STATUS_SKIPPED);
+            result.setError("Upstream transaction did not succeed");
+            long offset = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - graphStart);
+            result.setStartOffsetMillis(offset);
+            result.setFinishOffsetMillis(offset);
+            return result;
+        }
+
+        long start = System.nanoTime();
+        try {
+            HttpMethod method = HttpMethod.valueOf(edge.getOperation() == null ? "GET" : edge.getOperation().toUpperCase());
+            URI url = resolveUrl(edge, plan, ancestors);
+            result.setMethod(method.name());
+            result.setUrl(url.toString());
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+            if (edge.getHeaders() != null) {
+                edge.getHeaders().forEach(headers::set);
+            }
+
+            String body = requestBodyText(edge);
+            if (body != null) {
+                body = resolveBody(body, edge, plan, ancestors);
+            }
+
+            ResponseEntity<String> response = restTemplate.exchange(url, method, new HttpEntity<>(body, headers), String.class);
+            result.setHttpStatus(response.getStatusCode().value());
+            result.setResponseBody(parseBody(response.getBody()));
+            result.setStatus(response.getStatusCode().is2xxSuccessful() ? STATUS_SUCCESS : STATUS_FAILED);
+        } catch (HttpStatusCodeException e) {
+            result.setHttpStatus(e.getStatusCode().value());
+            result.setResponseBody(parseBody(e.getResponseBodyAsString()));
+            result.setStatus(STATUS_FAILED);
+            result.setError(e.getStatusText());
+        } catch (Exception e) {
+            log.error("Transaction {} failed: {}", edge.getId(), e.getMessage());
+            result.setStatus(STATUS_FAILED);
+            result.setError(e.getMessage());
+        } finally {
+            long finish = System.nanoTime();
+            result.setStartOffsetMillis(TimeUnit.NANOSECONDS.toMillis(start - graphStart));
+            result.setFinishOffsetMillis(TimeUnit.NANOSECONDS.toMillis(finish - graphStart));
+            result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(finish - start));
+        }
+
+        log.debug("Transaction {} {} {} -> {} in {} ms", edge.getId(), result.getMethod(), result.getUrl(),
+                result.getHttpStatus(), result.getDurationMillis());
+        return result;
+    }
+
+    private String requestBodyText(FlowEdge edge) throws JsonProcessingException {
+        if (edge.getRequestBody() == null) {
+            return null;
+        }
+        return edge.getRequestBody() instanceof String text ? text : objectMapper.writeValueAsString(edge.getRequestBody());
+    }
+
+    /**
+     * Builds the request URL. Upstream values and node labels are expanded as
+     * URI variables, which encodes every reserved character in them, and the
+     * result is a {@link URI} so RestTemplate does no template expansion of its own.
+     */
+    private URI resolveUrl(FlowEdge edge, GraphPlan plan, Map<String, EdgeExecutionResult> ancestors) {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("node-label-source", plan.labelOf(edge.getSource()));
+        variables.put("node-label-target", plan.labelOf(edge.getTarget()));
+
+        Matcher matcher = UPSTREAM_REFERENCE.matcher(edge.getPath());
+        StringBuilder path = new StringBuilder();
+        while (matcher.find()) {
+            JsonNode value = lookup(matcher, plan, ancestors);
+            String variable = "upstream" + variables.size();
+            variables.put(variable, value.isValueNode() ? value.asText() : value.toString());
+            matcher.appendReplacement(path, Matcher.quoteReplacement("{" + variable + "}"));
+        }
+        matcher.appendTail(path);
+
+        URI url = UriComponentsBuilder.fromUriString(targetUrl(path.toString())).encode().buildAndExpand(variables).toUri();
+        if (!allowedOrigins.contains(origin(UriComponentsBuilder.fromUri(url).build()))) {
+            throw new IllegalStateException("Target " + url + " is not an allowed origin");
+        }
+        return url;
+    }
+
+    private String targetUrl(String path) {
+        UriComponents parsed = UriComponentsBuilder.fromUriString(path).build();
+        if (parsed.getScheme() != null || parsed.getHost() != null) {
+            return path;
+        }
+        return baseUrl + (path.startsWith("/") ? path : "/" + path);
+    }
+
+    private static String origin(UriComponents url) {
+        String scheme = url.getScheme() != null ? url.getScheme().toLowerCase() : "";
+        int port = url.getPort();
+        if (port == -1) {
+            port = "https".equals(scheme) ? 443 : "http".equals(scheme) ? 80 : -1;
+        }
+        String host = url.getHost() != null ? url.getHost().toLowerCase() : "";
+        return scheme + "://" + host + ":" + port;
+    }
+
+    /**
+     * Substitutes upstream values into a JSON body. Inside a string literal the
+     * value is JSON-escaped; elsewhere it is inserted as a JSON value, so a
+     * string becomes a quoted string and an object stays an object.
+     */
+    private String resolveBody(String template, FlowEdge edge, GraphPlan plan,
+                               Map<String, EdgeExecutionResult> ancestors) {
+        String resolved = template
+                .replace("{node-label-source}", escapeJson(plan.labelOf(edge.getSource())))
+                .replace("{node-label-target}", escapeJson(plan.labelOf(edge.getTarget())));
+
+        Matcher matcher = UPSTREAM_REFERENCE.matcher(resolved);
+        StringBuilder out = new StringBuilder();
+        boolean inString = false;
+        boolean escaped = false;
+        int scanned = 0;
+        while (matcher.find()) {
+            for (; scanned < matcher.start(); scanned++) {
+                char c = resolved.charAt(scanned);
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = inString;
+                } else if (c == '"') {
+                    inString = !inString;
+                }
+            }
+            scanned = matcher.end();
+
+            JsonNode value = lookup(matcher, plan, ancestors);
+            String replacement;
+            if (inString) {
+                replacement = escapeJson(value.isValueNode() ? value.asText() : value.toString());
+            } else {
+                replacement = value.toString();
+            }
+            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    private JsonNode lookup(Matcher matcher, GraphPlan plan, Map<String, EdgeExecutionResult> ancestors) {
+        String reference = matcher.group();
+        // Plan validation guarantees the reference names a completed ancestor
+        EdgeExecutionResult upstream = ancestors.get(plan.edgeIdFor(matcher.group(1)));
+        if (!(upstream.getResponseBody() instanceof JsonNode node) || node.isTextual()) {
+            throw new IllegalStateException("Unresolved reference " + reference
+                    + ": response of " + matcher.group(1) + " is not JSON");
+        }
+        for (String field : matcher.group(2).split("\\.")) {
+            if (!field.isEmpty()) {
+                node = node.isArray() && field.chars().allMatch(Character::isDigit)
+                        ? node.path(Integer.parseInt(field))
+                        : node.path(field);
+            }
+        }
+        if (node.isMissingNode() || node.isNull()) {
+            throw new IllegalStateException("Unresolved reference " + reference
+                    + ": field not found in response of " + matcher.group(1));
+        }
+        return node;
+    }
+
+    private static String escapeJson(String value) {
+        return new String(JsonStringEncoder.getInstance().quoteAsString(value));
+    }
+
+    private JsonNode parseBody(String body) {
+        if (body == null || body.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            return TextNode.valueOf(body);
+        }
+    }
+
+    private void computeCriticalPath(GraphPlan plan, FlowGraphResult result) {
+        Map<String, EdgeExecutionResult> byId = new HashMap<>();
+        result.getEdges().forEach(edge -> byId.put(edge.getEdgeId(), edge));
+
+        Map<String, Long> pathLength = new HashMap<>();
+        Map<String, String> predecessor = new HashMap<>();
+        String last = null;
+        for (FlowEdge edge : plan.order) {
+            long longestUpstream = 0;
+            String longestDep = null;
+            for (String dep : plan.dependencies.get(edge.getId())) {
+                if (longestDep == null || pathLength.get(dep) > longestUpstream) {
+                    longestUpstream = pathLength.get(dep);
+                    longestDep = dep;
+                }
+            }
+            if (longestDep != null) {
+                predecessor.put(edge.getId(), longestDep);
+            }
+            long length = longestUpstream + byId.get(edge.getId()).getDurationMillis();
+            pathLength.put(edge.getId(), length);
+            if (last == null || length > pathLength.get(last)) {
+                last = edge.getId();
+            }
+        }
+
+        Deque<String> path = new ArrayDeque<>();
+        for (String current = last; current != null; current = predecessor.get(current)) {
+            path.addFirst(current);
+        }
+        result.setCriticalPath(new ArrayList<>(path));
+        result.setCriticalPathMillis(last == null ? 0 : pathLength.get(last));
+    }
+
+    private GraphPlan plan(FlowGraphRequest request) {
+        if (request == null || request.getEdges() == null || request.getEdges().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one transaction edge is required");
+        }
+
+        GraphPlan plan = new GraphPlan();
+        if (request.getNodes() != null) {
+            for (FlowNode node : request.getNodes()) {
+                plan.labels.put(node.getId(), node.getLabel());
+            }
+        }
+
+        Map<String, FlowEdge> edges = new LinkedHashMap<>();
+        Map<String, Integer> position = new HashMap<>();
+        for (FlowEdge edge : request.getEdges()) {
+            if (edge.getId() == null || edge.getPath() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Every edge needs an id and a path");
+            }
+            if (edges.put(edge.getId(), edge) != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duplicate edge id: " + edge.getId());
+            }
+            position.put(edge.getId(), position.size());
+            if (edge.getTransactionId() != null && plan.transactionIds.put(edge.getTransactionId(), edge.getId()) != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Duplicate transaction id: " + edge.getTransactionId());
+            }
+        }
+        // References try edge ids first, so a transaction id naming another edge would be shadowed
+        plan.transactionIds.forEach((transactionId, edgeId) -> {
+            if (!transactionId.equals(edgeId) && edges.containsKey(transactionId)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Transaction id " + transactionId + " of edge " + edgeId + " is also the id of another edge");
+            }
+        });
+
+        plan.edges.putAll(edges);
+        Map<String, List<String>> dependents = plan.dependents;
+        Map<String, Integer> inDegree = new HashMap<>();
+        for (FlowEdge edge : edges.values()) {
+            List<String> deps = new ArrayList<>();
+            for (FlowEdge other : edges.values()) {
+                if (other.getTarget() != null && other.getTarget().equals(edge.getSource())) {
+                    deps.add(other.getId());
+                    dependents.computeIfAbsent(other.getId(), key -> new ArrayList<>()).add(edge.getId());
+                }
+            }
+            plan.dependencies.put(edge.getId(), deps);
+            inDegree.put(edge.getId(), deps.size());
+        }
+
+        List<String> ready = new ArrayList<>();
+        inDegree.forEach((id, degree) -> {
+            if (degree == 0) {
+                ready.add(id);
+            }
+        });
+        ready.sort(Comparator.comparing(position::get));
+
+        while (!ready.isEmpty()) {
+            plan.stages.add(new ArrayList<>(ready));
+            List<String> next = new ArrayList<>();
+            for (String id : ready) {
+                FlowEdge edge = edges.get(id);
+                plan.order.add(edge);
+                Set<String> ancestors = new LinkedHashSet<>();
+                for (String dep : plan.dependencies.get(id)) {
+                    ancestors.add(dep);
+                    ancestors.addAll(plan.ancestors.get(dep));
+                }
+                plan.ancestors.put(id, ancestors);
+                for (String dependent : dependents.getOrDefault(id, Collections.emptyList())) {
+                    if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            next.sort(Comparator.comparing(position::get));
+            ready.clear();
+            ready.addAll(next);
+        }
+
+        if (plan.order.size() != edges.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Transaction graph contains a cycle");
+        }
+        validateReferences(plan);
+        return plan;
+    }
+
+    private void validateReferences(GraphPlan plan) {
+        for (FlowEdge edge : plan.order) {
+            String body;
+            try {
+                body = requestBodyText(edge);
+            } catch (JsonProcessingException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid request body on edge " + edge.getId());
+            }
+            String target = targetUrl(UPSTREAM_REFERENCE.matcher(edge.getPath()).replaceAll("x"));
+            if (!allowedOrigins.contains(origin(UriComponentsBuilder.fromUriString(target).build()))) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Edge " + edge.getId()
+                        + " targets " + edge.getPath() + ", which is not relative to the base URL or an allowed origin");
+            }
+            Matcher matcher = UPSTREAM_REFERENCE.matcher(edge.getPath() + (body != null ? body : ""));
+            while (matcher.find()) {
+                String edgeId = plan.edgeIdFor(matcher.group(1));
+                if (edgeId == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Edge " + edge.getId()
+                            + " references unknown transaction " + matcher.group());
+                }
+                if (!plan.ancestors.get(edge.getId()).contains(edgeId)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Edge " + edge.getId()
+                            + " references " + matcher.group() + ", which is not upstream of it");
+                }
+            }
+        }
+    }
+
+    private static class GraphPlan {
+        private final List<FlowEdge> order = new ArrayList<>();
+        private final Map<String, FlowEdge> edges = new HashMap<>();
+        private final List<List<String>> stages = new ArrayList<>();
+        private final Map<String, List<String>> dependencies = new HashMap<>();
+        private final Map<String, List<String>> dependents = new HashMap<>();
+        private final Map<String, Set<String>> ancestors = new HashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+        private final Map<String, String> transactionIds = new HashMap<>();
+
+        private FlowEdge edge(String edgeId) {
+            return edges.get(edgeId);
+        }
+
+        private String labelOf(String nodeId) {
+            String label = labels.get(nodeId);
+            return label != null ? label : "";
+        }
+
+        private String edgeIdFor(String reference) {
+            if (dependencies.containsKey(reference)) {
+                return reference;
+            }
+            return transactionIds.get(reference);
+        }
+    }
+
+    /**
+     * Scheduling state of one execution. Edges are handed to the shared pool
+     * only while the run has free slots, so a run with a low parallelism cap
+     * queues its own ready edges instead of parking pool workers.
+     */
+    private class GraphRun {
+        private final GraphPlan plan;
+        private final int parallelism;
+        private final long startNanos = System.nanoTime();
+        private final Map<String, EdgeExecutionResult> results = new ConcurrentHashMap<>();
+        private final Map<String, Integer> pendingDependencies = new HashMap<>();
+        private final Deque<FlowEdge> ready = new ArrayDeque<>();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private int inFlight;
+        private boolean cancelled;
+
+        private GraphRun(GraphPlan plan, int parallelism) {
+            this.plan = plan;
+            this.parallelism = parallelism;
+            for (FlowEdge edge : plan.order) {
+                int dependencies = plan.dependencies.get(edge.getId()).size();
+                pendingDependencies.put(edge.getId(), dependencies);
+                if (dependencies == 0) {
+                    ready.add(edge);
+                }
+            }
+        }
+
+        private void start() {
+            dispatch();
+        }
+
+        private void dispatch() {
+            List<FlowEdge> dispatched = new ArrayList<>();
+            synchronized (this) {
+                while (!cancelled && inFlight < parallelism && !ready.isEmpty()) {
+                    dispatched.add(ready.poll());
+                    inFlight++;
+                }
+            }
+            for (FlowEdge edge : dispatched) {
+                try {
+                    executor.execute(() -> runAndComplete(edge));
+                } catch (RejectedExecutionException e) {
+                    complete(edge, failure(edge, "Executor is shut down"));
+                }
+            }
+        }
+
+        /**
+         * Stops dispatching further edges after the caller gave up waiting;
+         * edges already in flight finish on their own.
+         */
+        private synchronized void cancel() {
+            cancelled = true;
+            ready.clear();
+        }
+
+        private void runAndComplete(FlowEdge edge) {
+            // Completing from finally keeps the run from hanging when an edge throws an Error
+            EdgeExecutionResult result = failure(edge, "Transaction did not complete");
+            try {
+                result = run(edge);
+            } catch (Error e) {
+                log.error("Transaction {} failed: {}", edge.getId(), e.toString());
+                result = failure(edge, e.toString());
+                throw e;
+            } finally {
+                complete(edge, result);
+            }
+        }
+
+        private EdgeExecutionResult run(FlowEdge edge) {
+            try {
+                return runEdge(edge, plan, results, startNanos);
+            } catch (RuntimeException e) {
+                log.error("Transaction {} failed: {}", edge.getId(), e.getMessage());
+                return failure(edge, e.getMessage());
+            }
+        }
+
+        private EdgeExecutionResult failure(FlowEdge edge, String error) {
+            EdgeExecutionResult result = new EdgeExecutionResult();
+            result.setEdgeId(edge.getId());
+            result.setTransactionId(edge.getTransactionId());
+            result.setDependsOn(plan.dependencies.get(edge.getId()));
+            result.setStatus(STATUS_FAILED);
+            result.setError(error);
+            return result;
+        }
+
+        private void complete(FlowEdge edge, EdgeExecutionResult result) {
+            boolean finished;
+            synchronized (this) {
+                results.put(edge.getId(), result);
+                inFlight--;
+                for (String dependent : plan.dependents.getOrDefault(edge.getId(), Collections.emptyList())) {
+                    if (pendingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                        ready.add(plan.edge(dependent));
+                    }
+                }
+                finished = results.size() == plan.order.size();
+            }
+            if (finished) {
+                completion.complete(null);
+            } else {
+                dispatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.testdata.manager.service.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testdata.manager.config.CaptureProperties;
+import com.testdata.manager.model.CapturedExchange;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records proxied request/response pairs off the request thread.
+ *
+ * The request thread only makes the sampling decision, truncates the bodies
+ * and hands the exchange to a lock-free ring buffer; serialisation, header
+ * redaction and compressed file output happen on a single background writer.
+ * When the buffer is full the exchange is dropped and counted rather than
+ * slowing the proxy down.
+ */
+@Slf4j
+@Service
+public class ExchangeCaptureService {
+
+    // Upper bound on an idle wait; producers unpark the writer as soon as there is work
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String REDACTED = "[redacted]";
+
+    private final CaptureProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ExchangeRingBuffer<CapturedExchange> buffer;
+    private final Set<String> redactedHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private volatile boolean running;
+    private volatile boolean writerIdle;
+    private volatile Thread writerThread;
+
+    public ExchangeCaptureService(CaptureProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.buffer = new ExchangeRingBuffer<>(properties.getBufferSize());
+        this.redactedHeaders.addAll(properties.getRedactHeaders());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("Exchange capture is disabled");
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::drain, "exchange-capture-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Exchange capture enabled: sample rate {}, errors only {}, buffer {}, directory {}",
+                properties.getSampleRate(), properties.isErrorsOnly(), buffer.capacity(), properties.getDirectory());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean shouldCapture(String path, int status) {
+        if (!running) {
+            return false;
+        }
+        boolean error = status >= 400;
+        if (error && (properties.isErrorsOnly() || properties.isAlwaysCaptureErrors())) {
+            return true;
+        }
+        double rate = properties.isErrorsOnly() ? 0.0 : sampleRateFor(path);
+        if (rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate)) {
+            return true;
+        }
+        sampledOut.incrementAndGet();
+        return false;
+    }
+
+    public void capture(String method, String path, String targetUrl, int status, long durationMillis,
+                        HttpHeaders requestHeaders, String requestBody,
+                        HttpHeaders responseHeaders, String responseBody) {
+        if (!shouldCapture(path, status)) {
+            return;
+        }
+
+        CapturedExchange exchange = new CapturedExchange();
+        exchange.setTimestamp(System.currentTimeMillis());
+        exchange.setMethod(method);
+        exchange.setPath(path);
+        exchange.setTargetUrl(targetUrl);
+        exchange.setStatus(status);
+        exchange.setDurationMillis(durationMillis);
+        // Redacted on the writer thread; the proxy does not modify these headers after sending
+        exchange.setRequestHeaders(requestHeaders);
+        exchange.setResponseHeaders(responseHeaders);
+        exchange.setRequestBody(truncate(requestBody));
+        exchange.setRequestBodyLength(requestBody != null ? requestBody.length() : 0);
+        exchange.setResponseBody(truncate(responseBody));
+        exchange.setResponseBodyLength(responseBody != null ? responseBody.length() : 0);
+
+        offered.incrementAndGet();
+        if (!buffer.offer(exchange)) {
+            dropped.incrementAndGet();
+        } else if (writerIdle) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", running);
+        stats.put("offered", offered.get());
+        stats.put("sampledOut", sampledOut.get());
+        stats.put("dropped", dropped.get());
+        stats.put("written", written.get());
+        stats.put("writeErrors", writeErrors.get());
+        stats.put("buffered", buffer.size());
+        stats.put("bufferCapacity", buffer.capacity());
+        return stats;
+    }
+
+    private double sampleRateFor(String path) {
+        String bestMatch = null;
+        for (String prefix : properties.getRoutes().keySet()) {
+            if (path != null && path.startsWith(prefix) && (bestMatch == null || prefix.length() > bestMatch.length())) {
+                bestMatch = prefix;
+            }
+        }
+        return bestMatch != null ? properties.getRoutes().get(bestMatch) : properties.getSampleRate();
+    }
+
+    private String truncate(String body) {
+        int limit = properties.getMaxBodyChars();
+        if (body == null || body.length() <= limit) {
+            return body;
+        }
+        return body.substring(0, Math.max(0, limit));
+    }
+
+    private void drain() {
+        try (RollingGzipFileWriter writer = new RollingGzipFileWriter(
+                properties.getDirectory(), properties.getMaxFileBytes(), properties.getMaxFiles())) {
+            boolean dirty = false;
+            while (running || buffer.size() > 0) {
+                CapturedExchange exchange = buffer.poll();
+                if (exchange == null) {
+                    if (dirty) {
+                        flush(writer);
+                        dirty = false;
+                    }
+                    // Publish the idle flag before re-checking, so a producer either sees it or its item is seen here
+                    writerIdle = true;
+                    if (running && buffer.size() == 0) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    writerIdle = false;
+                    continue;
+                }
+                try {
+                    exchange.setRequestHeaders(redact(exchange.getRequestHeaders()));
+                    exchange.setResponseHeaders(redact(exchange.getResponseHeaders()));
+                    writer.writeLine(objectMapper.writeValueAsString(exchange));
+                    written.incrementAndGet();
+                    dirty = true;
+                } catch (Exception e) {
+                    writeErrors.incrementAndGet();
+                    log.warn("Could not write captured exchange: {}", e.getMessage());
+                }
+            }
+            flush(writer);
+        } catch (Exception e) {
+            log.error("Exchange capture writer stopped: {}", e.getMessage(), e);
+        }
+    }
+
+    private void flush(RollingGzipFileWriter writer) {
+        try {
+            writer.flush();
+        } catch (Exception e) {
+            writeErrors.incrementAndGet();
+            log.warn("Could not flush captured exchanges: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, List<String>> redact(Map<String, List<String>> headers) {
+        if (headers == null) {
+            return null;
+        }
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        headers.forEach((key, value) -> copy.put(key, redactedHeaders.contains(key) ? List.of(REDACTED) : value));
+        return copy;
+    }
+}
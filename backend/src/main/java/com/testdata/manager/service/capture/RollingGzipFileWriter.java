@@ -0,0 +1,126 @@
+package com.testdata.manager.service.capture;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes lines into gzip files, starting a new file once the compressed bytes
+ * written to the current one exceed the limit and deleting the oldest files
+ * beyond the retention count. Data still buffered in the compressor is not
+ * counted, so a file can overshoot the limit by up to one flush worth of
+ * output. Not thread-safe; owned by the capture writer thread.
+ */
+@Slf4j
+public class RollingGzipFileWriter implements Closeable {
+
+    private static final String FILE_PREFIX = "capture-";
+    private static final String FILE_SUFFIX = ".jsonl.gz";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private Writer writer;
+    private CountingOutputStream fileOutput;
+    private int fileCounter;
+
+    public RollingGzipFileWriter(String directory, long maxFileBytes, int maxFiles) {
+        this.directory = Paths.get(directory);
+        this.maxFileBytes = Math.max(1024, maxFileBytes);
+        this.maxFiles = Math.max(1, maxFiles);
+    }
+
+    public void writeLine(String line) throws IOException {
+        if (writer == null || fileOutput.count >= maxFileBytes) {
+            roll();
+        }
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    public void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void roll() throws IOException {
+        close();
+        Files.createDirectories(directory);
+        String name = FILE_PREFIX + LocalDateTime.now().format(FILE_TIMESTAMP) + "-" + (fileCounter++) + FILE_SUFFIX;
+        Path file = directory.resolve(name);
+        fileOutput = new CountingOutputStream(Files.newOutputStream(file));
+        writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(fileOutput, 8192, true), StandardCharsets.UTF_8));
+        log.info("Writing captured exchanges to {}", file);
+        deleteOldFiles(file);
+    }
+
+    private void deleteOldFiles(Path current) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> captures = files
+                    .filter(path -> !path.equals(current))
+                    .filter(path -> path.getFileName().toString().startsWith(FILE_PREFIX)
+                            && path.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted(Comparator.comparing(this::lastModified).thenComparing(Path::toString))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < captures.size() - (maxFiles - 1); i++) {
+                Files.deleteIfExists(captures.get(i));
+            }
+        }
+    }
+
+    private long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.testdata.manager.controller;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testdata.manager.config.CaptureProperties;
+import com.testdata.manager.service.capture.ExchangeCaptureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Measures ProxyController throughput with exchange capture off and on.
+ *
+ * The upstream is an in-memory RestTemplate returning a fixed JSON body, so
+ * the numbers isolate the proxy's own work (header handling, JSON check,
+ * capture). Run from the backend directory:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) \
+ *     com.testdata.manager.controller.ProxyCaptureBenchmark [threads] [seconds] [rounds]
+ * </pre>
+ * Modes are interleaved within each round and the median of all rounds is
+ * reported. Capture moves its work to a background writer, so run on a
+ * machine with at least two cores; on one core the writer competes with the
+ * request threads and the results say little about the design.
+ */
+public class ProxyCaptureBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        String responseBody = sampleResponse();
+        Path directory = Files.createTempDirectory("capture-benchmark");
+        System.out.printf("threads=%d, seconds=%d, rounds=%d, cpus=%d, response body=%d chars, capture dir=%s%n",
+                threads, seconds, rounds, Runtime.getRuntime().availableProcessors(), responseBody.length(), directory);
+
+        List<Mode> modes = List.of(
+                new Mode("capture off", false, 0.0),
+                new Mode("capture on, 10% sampled", true, 0.1),
+                new Mode("capture on, 100% sampled", true, 1.0));
+
+        // Warm the JIT once so the first mode measured is not penalised
+        CaptureProperties warmup = new CaptureProperties();
+        warmup.setEnabled(false);
+        run(new ProxyController(upstream(responseBody), new ObjectMapper(),
+                new ExchangeCaptureService(warmup, new ObjectMapper()), "http://upstream"), threads, seconds * 2);
+
+        Map<Mode, List<Result>> results = new LinkedHashMap<>();
+        for (int round = 1; round <= rounds; round++) {
+            System.out.printf("round %d%n", round);
+            for (Mode mode : modes) {
+                Result result = measure(mode, directory.resolve("round-" + round), responseBody, threads, seconds);
+                results.computeIfAbsent(mode, key -> new ArrayList<>()).add(result);
+            }
+        }
+
+        System.out.printf("median of %d rounds%n", rounds);
+        results.forEach((mode, measured) -> print(mode, new Result(
+                median(measured, Result::throughput),
+                (long) median(measured, Result::written),
+                (long) median(measured, Result::dropped))));
+    }
+
+    private static Result measure(Mode mode, Path directory, String responseBody, int threads, int seconds)
+            throws InterruptedException {
+        CaptureProperties properties = new CaptureProperties();
+        properties.setEnabled(mode.enabled());
+        properties.setSampleRate(mode.sampleRate());
+        properties.setDirectory(directory.resolve(mode.name().replaceAll("\\W+", "-")).toString());
+        ExchangeCaptureService captureService = new ExchangeCaptureService(properties, new ObjectMapper());
+        captureService.start();
+        ProxyController controller = new ProxyController(upstream(responseBody), new ObjectMapper(),
+                captureService, "http://upstream");
+
+        double throughput = run(controller, threads, seconds);
+        captureService.stop();
+
+        Map<String, Object> stats = captureService.getStats();
+        Result result = new Result(throughput, (Long) stats.get("written"), (Long) stats.get("dropped"));
+        print(mode, result);
+        return result;
+    }
+
+    private static void print(Mode mode, Result result) {
+        System.out.printf("%-26s %10.0f req/s   written=%d dropped=%d%n",
+                mode.name(), result.throughput(), result.written(), result.dropped());
+    }
+
+    private static double median(List<Result> results, ToDoubleFunction<Result> metric) {
+        double[] values = results.stream().mapToDouble(metric).sorted().toArray();
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    private static double run(ProxyController controller, int threads, int seconds) throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder requests = new LongAdder();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.AUTHORIZATION, "Bearer benchmark");
+                headers.set("X-Request-Id", "benchmark");
+                while (!stop.get()) {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/proxy/vehicles/components");
+                    controller.proxyRequest(null, HttpMethod.GET, headers, request);
+                    requests.increment();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(seconds);
+        stop.set(true);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return requests.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static RestTemplate upstream(String responseBody) {
+        return new RestTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+                                                  Class<T> responseType, Object... uriVariables) {
+                return (ResponseEntity<T>) ResponseEntity.ok(responseBody);
+            }
+        };
+    }
+
+    private static String sampleResponse() {
+        StringBuilder body = new StringBuilder("{\"vehicleDeviceInformation\": {\"status\": 200, \"value\": [");
+        for (int i = 0; i < 40; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"number\": \"B").append(i).append("\", \"indicatorId\": ").append(i)
+                    .append(", \"rateFlag\": \"N\", \"rawContent\": \"0123456789ABCDEF0123456789ABCDEF\"}");
+        }
+        return body.append("]}}").toString();
+    }
+
+    private record Mode(String name, boolean enabled, double sampleRate) {
+    }
+
+    private record Result(double throughput, long written, long dropped) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.testdata.manager.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testdata.manager.service.capture.ExchangeCaptureService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ProxyControllerTest {
+
+    private final ExchangeCaptureService captureService = mock(ExchangeCaptureService.class);
+
+    @Test
+    void capturesBadGatewayWhenUpstreamReturnsInvalidJson() {
+        ProxyController controller = controller("not json");
+
+        ResponseEntity<String> response = controller.proxyRequest(null, HttpMethod.GET, authorized(), request());
+
+        assertThat(response.getStatusCode().value()).isEqualTo(502);
+        verify(captureService).capture(eq("GET"), eq("/vehicles"), eq("http://upstream/vehicles"), eq(502),
+                anyLong(), any(HttpHeaders.class), any(), eq(response.getHeaders()), eq(response.getBody()));
+    }
+
+    @Test
+    void capturesUnauthorizedEarlyReturn() {
+        ProxyController controller = controller("{}");
+
+        ResponseEntity<String> response = controller.proxyRequest(null, HttpMethod.GET, new HttpHeaders(), request());
+
+        assertThat(response.getStatusCode().value()).isEqualTo(401);
+        verify(captureService).capture(eq("GET"), eq("/vehicles"), anyString(), eq(401),
+                anyLong(), any(HttpHeaders.class), any(), eq(response.getHeaders()), eq(response.getBody()));
+    }
+
+    private ProxyController controller(String upstreamBody) {
+        RestTemplate restTemplate = new RestTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+                                                  Class<T> responseType, Object... uriVariables) {
+                return (ResponseEntity<T>) ResponseEntity.ok(upstreamBody);
+            }
+        };
+        return new ProxyController(restTemplate, new ObjectMapper(), captureService, "http://upstream");
+    }
+
+    private static HttpHeaders authorized() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "token");
+        return headers;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/proxy/vehicles");
+    }
+}
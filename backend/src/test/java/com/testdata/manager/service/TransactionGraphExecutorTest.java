@@ -0,0 +1,376 @@
+package com.testdata.manager.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testdata.manager.model.flow.EdgeExecutionResult;
+import com.testdata.manager.model.flow.FlowEdge;
+import com.testdata.manager.model.flow.FlowGraphRequest;
+import com.testdata.manager.model.flow.FlowGraphResult;
+import com.testdata.manager.model.flow.FlowNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionGraphExecutorTest {
+
+    private final StubRestTemplate restTemplate = new StubRestTemplate();
+    private TransactionGraphExecutor executor = new TransactionGraphExecutor(restTemplate, new ObjectMapper(), "http://test",
+            List.of("https://allowed.example"), 8, 30);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void runsFanOutBranchesConcurrently() {
+        restTemplate.respond("/api/hello", url -> delayed(200, "{\"message\": \"hi\"}"));
+
+        FlowGraphResult result = executor.execute(graph(
+                edge("ab", "a", "b", "/api/hello/Beate"),
+                edge("ac", "a", "c", "/api/hello/Cesar"),
+                edge("ae", "a", "e", "/api/hello/Emil")));
+
+        assertThat(result.getStages()).containsExactly(List.of("ab", "ac", "ae"));
+        assertThat(result.getEdges()).extracting(EdgeExecutionResult::getStatus).containsOnly("success");
+        assertThat(restTemplate.maxConcurrent.get()).isEqualTo(3);
+        assertThat(result.getWallClockMillis()).isLessThan(500);
+        assertThat(result.getSumOfEdgeMillis()).isGreaterThanOrEqualTo(600);
+    }
+
+    @Test
+    void runsDiamondInDependencyOrderAndFeedsUpstreamValues() {
+        restTemplate.respond("/start", url -> delayed(50, "{\"id\": \"42\", \"items\": [{\"name\": \"first\"}]}"));
+        restTemplate.respond("/left", url -> delayed(100, "{\"side\": \"left\"}"));
+        restTemplate.respond("/right", url -> delayed(50, "{\"side\": \"right\"}"));
+        restTemplate.respond("/join", url -> delayed(0, "{}"));
+
+        FlowGraphResult result = executor.execute(graph(
+                edge("start", "a", "b", "/start"),
+                edge("left", "b", "c", "/left/{{start.id}}"),
+                edge("right", "b", "c", "/right"),
+                edge("join", "c", "d", "/join/{{start.items.0.name}}/{{left.side}}")));
+
+        assertThat(result.getStages()).containsExactly(List.of("start"), List.of("left", "right"), List.of("join"));
+        EdgeExecutionResult join = byId(result, "join");
+        assertThat(join.getDependsOn()).containsExactlyInAnyOrder("left", "right");
+        assertThat(join.getUrl()).isEqualTo("http://test/join/first/left");
+        assertThat(byId(result, "left").getUrl()).isEqualTo("http://test/left/42");
+        assertThat(join.getStartOffsetMillis())
+                .isGreaterThanOrEqualTo(byId(result, "left").getFinishOffsetMillis())
+                .isGreaterThanOrEqualTo(byId(result, "right").getFinishOffsetMillis());
+    }
+
+    @Test
+    void rejectsCycles() {
+        assertThatThrownBy(() -> executor.execute(graph(
+                edge("ab", "a", "b", "/one"),
+                edge("ba", "b", "a", "/two"))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThat(restTemplate.calls).isEmpty();
+    }
+
+    @Test
+    void rejectsReferencesToEdgesThatAreNotUpstream() {
+        assertThatThrownBy(() -> executor.execute(graph(
+                edge("ab", "a", "b", "/one"),
+                edge("ac", "a", "c", "/two/{{ab.id}}"))))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(e.getReason()).contains("{{ab.id}}");
+                });
+    }
+
+    @Test
+    void rejectsDuplicateTransactionIds() {
+        FlowEdge first = edge("ab", "a", "b", "/one");
+        first.setTransactionId("tx");
+        FlowEdge second = edge("bc", "b", "c", "/two/{{tx.id}}");
+        second.setTransactionId("tx");
+
+        assertThatThrownBy(() -> executor.execute(graph(first, second)))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(e.getReason()).contains("tx");
+                });
+        assertThat(restTemplate.calls).isEmpty();
+    }
+
+    @Test
+    void failsEdgeWhenReferencedFieldIsMissing() {
+        restTemplate.respond("/one", url -> delayed(0, "{\"id\": \"1\"}"));
+
+        FlowGraphResult result = executor.execute(graph(
+                edge("ab", "a", "b", "/one"),
+                edge("bc", "b", "c", "/two/{{ab.missing}}")));
+
+        EdgeExecutionResult failed = byId(result, "bc");
+        assertThat(failed.getStatus()).isEqualTo("failed");
+        assertThat(failed.getError()).contains("{{ab.missing}}");
+        assertThat(restTemplate.calls).containsExactly("http://test/one");
+    }
+
+    @Test
+    void encodesUpstreamValuesSubstitutedIntoPaths() {
+        restTemplate.respond("/one", url -> delayed(0,
+                "{\"obj\": {\"k\": [1, 2]}, \"name\": \"a/b?c=1&d#\\\"e\\\"\"}"));
+        restTemplate.respond("/two", url -> delayed(0, "{}"));
+
+        FlowGraphResult result = executor.execute(graph(
+                edge("ab", "a", "b", "/one"),
+                edge("bc", "b", "c", "/two/{{ab.obj}}/{{ab.name}}?q={{ab.name}}")));
+
+        EdgeExecutionResult two = byId(result, "bc");
+        assertThat(two.getStatus()).isEqualTo("success");
+        URI url = URI.create(two.getUrl());
+        assertThat(url.getRawPath()).isEqualTo("/two/%7B%22k%22%3A%5B1%2C2%5D%7D/a%2Fb%3Fc%3D1%26d%23%22e%22");
+        assertThat(url.getRawQuery()).isEqualTo("q=a%2Fb%3Fc%3D1%26d%23%22e%22");
+        assertThat(url.getRawFragment()).isNull();
+    }
+
+    @Test
+    void escapesUpstreamValuesSubstitutedIntoBodies() throws Exception {
+        restTemplate.respond("/one", url -> delayed(0,
+                "{\"obj\": {\"k\": [1, 2]}, \"name\": \"a/b \\\"quoted\\\"\"}"));
+        restTemplate.respond("/two", url -> delayed(0, "{}"));
+        FlowEdge post = edge("bc", "b", "c", "/two");
+        post.setOperation("POST");
+        post.setRequestBody("{\"name\": \"{{ab.name}}\", \"label\": \"x {{ab.obj}}\", \"obj\": {{ab.obj}}, \"raw\": {{ab.name}}}");
+
+        executor.execute(graph(edge("ab", "a", "b", "/one"), post));
+
+        JsonNode body = new ObjectMapper().readTree(restTemplate.bodies.get("http://test/two"));
+        assertThat(body.path("name").asText()).isEqualTo("a/b \"quoted\"");
+        assertThat(body.path("label").asText()).isEqualTo("x {\"k\":[1,2]}");
+        assertThat(body.path("obj").path("k").get(1).asInt()).isEqualTo(2);
+        assertThat(body.path("raw").asText()).isEqualTo("a/b \"quoted\"");
+    }
+
+    @Test
+    void rejectsAbsoluteUrlsOutsideTheAllowedOrigins() {
+        for (String path : List.of("http://internal:9000/admin", "//internal/admin", "https://allowed.example:8443/x")) {
+            assertThatThrownBy(() -> executor.execute(graph(edge("ab", "a", "b", path))))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+        assertThat(restTemplate.calls).isEmpty();
+    }
+
+    @Test
+    void resolvesRelativePathsAgainstTheBaseUrlAndAllowsListedOrigins() {
+        restTemplate.respond("/httpbin", url -> delayed(0, "{}"));
+        restTemplate.responders.put("https://allowed.example/", url -> delayed(0, "{}"));
+
+        executor.execute(graph(
+                edge("ab", "a", "b", "httpbin/x"),
+                edge("cd", "c", "d", "https://allowed.example/y")));
+
+        assertThat(restTemplate.calls).containsExactlyInAnyOrder("http://test/httpbin/x", "https://allowed.example/y");
+    }
+
+    @Test
+    void skipsEverythingDownstreamOfAFailure() {
+        restTemplate.respond("/broken", url -> {
+            throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+        });
+        restTemplate.respond("/ok", url -> delayed(0, "{}"));
+
+        FlowGraphResult result = executor.execute(graph(
+                edge("ab", "a", "b", "/broken"),
+                edge("bc", "b", "c", "/ok/1"),
+                edge("cd", "c", "d", "/ok/2"),
+                edge("xy", "x", "y", "/ok/3")));
+
+        assertThat(byId(result, "ab").getStatus()).isEqualTo("failed");
+        assertThat(byId(result, "ab").getHttpStatus()).isEqualTo(500);
+        assertThat(byId(result, "bc").getStatus()).isEqualTo("skipped");
+        assertThat(byId(result, "cd").getStatus()).isEqualTo("skipped");
+        assertThat(byId(result, "xy").getStatus()).isEqualTo("success");
+        assertThat(restTemplate.calls).containsExactlyInAnyOrder("http://test/broken", "http://test/ok/3");
+    }
+
+    @Test
+    void completesRunWhenAnEdgeThrowsAnError() {
+        restTemplate.respond("/error", url -> {
+            throw new NoClassDefFoundError("boom");
+        });
+        restTemplate.respond("/ok", url -> delayed(0, "{}"));
+
+        FlowGraphResult result = executor.execute(graph(
+                edge("ab", "a", "b", "/error"),
+                edge("bc", "b", "c", "/ok")));
+
+        assertThat(byId(result, "ab").getStatus()).isEqualTo("failed");
+        assertThat(byId(result, "ab").getError()).contains("boom");
+        assertThat(byId(result, "bc").getStatus()).isEqualTo("skipped");
+    }
+
+    @Test
+    void givesUpAfterTheConfiguredTimeout() {
+        executor.shutdown();
+        executor = new TransactionGraphExecutor(restTemplate, new ObjectMapper(), "http://test", List.of(), 2, 1);
+        restTemplate.respond("/slow", url -> delayed(1500, "{}"));
+
+        assertThatThrownBy(() -> executor.execute(graph(
+                edge("ab", "a", "b", "/slow/1"),
+                edge("bc", "b", "c", "/slow/2"))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+    }
+
+    @Test
+    void reportsCriticalPathSeparatelyFromSequentialSum() {
+        restTemplate.respond("/slow", url -> delayed(150, "{}"));
+        restTemplate.respond("/fast", url -> delayed(50, "{}"));
+
+        FlowGraphResult result = executor.execute(graph(
+                edge("ab", "a", "b", "/slow/1"),
+                edge("bc", "b", "c", "/slow/2"),
+                edge("ax", "a", "x", "/fast/1"),
+                edge("xy", "x", "y", "/fast/2")));
+
+        assertThat(result.getCriticalPath()).containsExactly("ab", "bc");
+        assertThat(result.getCriticalPathMillis()).isBetween(300L, 450L);
+        assertThat(result.getSumOfEdgeMillis()).isGreaterThanOrEqualTo(400);
+        assertThat(result.getWallClockMillis()).isLessThan(result.getSumOfEdgeMillis());
+    }
+
+    @Test
+    void perRunCapDoesNotHoldWorkersFromOtherRuns() throws Exception {
+        executor.shutdown();
+        executor = new TransactionGraphExecutor(restTemplate, new ObjectMapper(), "http://test", List.of(), 2, 30);
+        CountDownLatch cappedInFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger cappedConcurrent = new AtomicInteger();
+        AtomicInteger cappedMaxConcurrent = new AtomicInteger();
+        restTemplate.respond("/capped", url -> {
+            cappedMaxConcurrent.accumulateAndGet(cappedConcurrent.incrementAndGet(), Math::max);
+            try {
+                cappedInFlight.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return ResponseEntity.ok("{}");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                cappedConcurrent.decrementAndGet();
+            }
+        });
+        restTemplate.respond("/other", url -> delayed(0, "{}"));
+
+        FlowGraphRequest capped = graph(
+                edge("a1", "a", "b", "/capped/1"),
+                edge("a2", "a", "c", "/capped/2"),
+                edge("a3", "a", "d", "/capped/3"),
+                edge("a4", "a", "e", "/capped/4"));
+        capped.setMaxParallelism(1);
+        CompletableFuture<FlowGraphResult> cappedRun = CompletableFuture.supplyAsync(() -> executor.execute(capped));
+        assertThat(cappedInFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // A capped edge now occupies one of the two workers; the other run must still get the second one
+        FlowGraphResult other = CompletableFuture.supplyAsync(() -> executor.execute(graph(edge("o1", "x", "y", "/other"))))
+                .get(2, TimeUnit.SECONDS);
+        assertThat(other.getEdges()).extracting(EdgeExecutionResult::getStatus).containsExactly("success");
+        assertThat(cappedRun).isNotDone();
+
+        release.countDown();
+        FlowGraphResult cappedResult = cappedRun.get(5, TimeUnit.SECONDS);
+        assertThat(cappedResult.getParallelism()).isEqualTo(1);
+        assertThat(cappedResult.getEdges()).extracting(EdgeExecutionResult::getStatus).containsOnly("success");
+        assertThat(cappedMaxConcurrent.get()).isEqualTo(1);
+    }
+
+    private static FlowGraphRequest graph(FlowEdge... edges) {
+        FlowGraphRequest request = new FlowGraphRequest();
+        for (FlowEdge edge : edges) {
+            request.getEdges().add(edge);
+            for (String nodeId : List.of(edge.getSource(), edge.getTarget())) {
+                if (request.getNodes().stream().noneMatch(node -> node.getId().equals(nodeId))) {
+                    FlowNode node = new FlowNode();
+                    node.setId(nodeId);
+                    node.setLabel(nodeId.toUpperCase());
+                    request.getNodes().add(node);
+                }
+            }
+        }
+        return request;
+    }
+
+    private static FlowEdge edge(String id, String source, String target, String path) {
+        FlowEdge edge = new FlowEdge();
+        edge.setId(id);
+        edge.setSource(source);
+        edge.setTarget(target);
+        edge.setOperation("GET");
+        edge.setPath(path);
+        return edge;
+    }
+
+    private static EdgeExecutionResult byId(FlowGraphResult result, String edgeId) {
+        return result.getEdges().stream().filter(edge -> edge.getEdgeId().equals(edgeId)).findFirst().orElseThrow();
+    }
+
+    private static ResponseEntity<String> delayed(long millis, String body) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    private static class StubRestTemplate extends RestTemplate {
+        private final Map<String, Function<String, ResponseEntity<String>>> responders = new ConcurrentHashMap<>();
+        private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        private final Map<String, String> bodies = new ConcurrentHashMap<>();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        void respond(String pathPrefix, Function<String, ResponseEntity<String>> responder) {
+            responders.put("http://test" + pathPrefix, responder);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> ResponseEntity<T> exchange(URI uri, HttpMethod method, HttpEntity<?> requestEntity,
+                                              Class<T> responseType) {
+            String url = uri.toString();
+            calls.add(url);
+            if (requestEntity.getBody() != null) {
+                bodies.put(url, requestEntity.getBody().toString());
+            }
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                return (ResponseEntity<T>) responders.entrySet().stream()
+                        .filter(entry -> url.startsWith(entry.getKey()))
+                        .findFirst()
+                        .orElseThrow(() -> new AssertionError("Unexpected request " + url))
+                        .getValue()
+                        .apply(url);
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+    }
+}
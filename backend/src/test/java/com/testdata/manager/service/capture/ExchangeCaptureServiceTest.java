@@ -0,0 +1,177 @@
+package com.testdata.manager.service.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testdata.manager.config.CaptureProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExchangeCaptureServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CaptureProperties properties = new CaptureProperties();
+    private ExchangeCaptureService service;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void stop() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void errorsOnlyKeepsErrorsRegardlessOfRouteRates() throws IOException {
+        properties.setErrorsOnly(true);
+        properties.setRoutes(Map.of("/vehicles", 1.0));
+        start();
+
+        capture("/vehicles/1", 200);
+        capture("/vehicles/2", 404);
+
+        assertThat(paths(stopAndRead())).containsExactly("/vehicles/2");
+    }
+
+    @Test
+    void alwaysCaptureErrorsOverridesZeroSampleRate() throws IOException {
+        properties.setSampleRate(0.0);
+        start();
+
+        capture("/vehicles/1", 200);
+        capture("/vehicles/2", 502);
+
+        assertThat(paths(stopAndRead())).containsExactly("/vehicles/2");
+        assertThat(service.getStats()).containsEntry("sampledOut", 1L);
+    }
+
+    @Test
+    void errorsFollowSampleRateWhenNotAlwaysCaptured() throws IOException {
+        properties.setSampleRate(0.0);
+        properties.setAlwaysCaptureErrors(false);
+        start();
+
+        capture("/vehicles/1", 500);
+
+        assertThat(stopAndRead()).isEmpty();
+    }
+
+    @Test
+    void longestRoutePrefixWins() throws IOException {
+        properties.setSampleRate(0.0);
+        properties.setRoutes(Map.of("/vehicles", 1.0, "/vehicles/private", 0.0));
+        start();
+
+        capture("/vehicles/1", 200);
+        capture("/vehicles/private/1", 200);
+        capture("/other", 200);
+
+        assertThat(paths(stopAndRead())).containsExactly("/vehicles/1");
+    }
+
+    @Test
+    void truncatesBodiesAndKeepsOriginalLength() throws IOException {
+        properties.setSampleRate(1.0);
+        properties.setMaxBodyChars(5);
+        start();
+
+        service.capture("POST", "/vehicles", "http://upstream/vehicles", 200, 3,
+                new HttpHeaders(), "0123456789", new HttpHeaders(), "abc");
+
+        JsonNode exchange = stopAndRead().get(0);
+        assertThat(exchange.path("requestBody").asText()).isEqualTo("01234");
+        assertThat(exchange.path("requestBodyLength").asInt()).isEqualTo(10);
+        assertThat(exchange.path("responseBody").asText()).isEqualTo("abc");
+        assertThat(exchange.path("responseBodyLength").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    void redactsConfiguredHeadersCaseInsensitively() throws IOException {
+        properties.setSampleRate(1.0);
+        start();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("authorization", "Bearer secret");
+        headers.set("x-api-key", "secret");
+        headers.set("X-Request-Id", "abc");
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.set("set-cookie", "session=secret");
+        responseHeaders.set("X-Trace-Id", "def");
+        service.capture("GET", "/vehicles", "http://upstream/vehicles", 200, 1, headers, null, responseHeaders, "{}");
+
+        JsonNode exchange = stopAndRead().get(0);
+        JsonNode captured = exchange.path("requestHeaders");
+        assertThat(captured.toString()).doesNotContain("secret");
+        assertThat(captured.path("X-Request-Id").get(0).asText()).isEqualTo("abc");
+        JsonNode capturedResponse = exchange.path("responseHeaders");
+        assertThat(capturedResponse.toString()).doesNotContain("secret");
+        assertThat(capturedResponse.path("X-Trace-Id").get(0).asText()).isEqualTo("def");
+    }
+
+    @Test
+    void rollsFilesAndKeepsRetentionCount() throws IOException {
+        try (RollingGzipFileWriter writer = new RollingGzipFileWriter(directory.toString(), 1024, 3)) {
+            for (int i = 0; i < 200; i++) {
+                // Random-ish content so the compressed output actually grows
+                writer.writeLine(i + ":" + Long.toHexString(Double.doubleToLongBits(Math.random())).repeat(8));
+                writer.flush();
+            }
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> captures = files.toList();
+            assertThat(captures).hasSize(3);
+            for (Path file : captures) {
+                assertThat(Files.size(file)).isLessThan(4096);
+            }
+        }
+    }
+
+    private void start() {
+        properties.setDirectory(directory.toString());
+        service = new ExchangeCaptureService(properties, objectMapper);
+        service.start();
+    }
+
+    private void capture(String path, int status) {
+        service.capture("GET", path, "http://upstream" + path, status, 1, new HttpHeaders(), null, new HttpHeaders(), "{}");
+    }
+
+    private List<JsonNode> stopAndRead() throws IOException {
+        service.stop();
+        List<JsonNode> exchanges = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        exchanges.add(objectMapper.readTree(line));
+                    }
+                }
+            }
+        }
+        return exchanges;
+    }
+
+    private static List<String> paths(List<JsonNode> exchanges) {
+        return exchanges.stream().map(exchange -> exchange.path("path").asText()).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.testdata.manager.service.capture;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExchangeRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new ExchangeRingBuffer<>(1000).capacity()).isEqualTo(1024);
+        assertThat(new ExchangeRingBuffer<>(1024).capacity()).isEqualTo(1024);
+        assertThat(new ExchangeRingBuffer<>(1).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsOffersWhenFullAndAcceptsAgainAfterPoll() {
+        ExchangeRingBuffer<Integer> buffer = new ExchangeRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isFalse();
+    }
+
+    @Test
+    void keepsFifoOrderAcrossManyWraps() {
+        ExchangeRingBuffer<Integer> buffer = new ExchangeRingBuffer<>(4);
+        int next = 0;
+        for (int lap = 0; lap < 100; lap++) {
+            assertThat(buffer.offer(lap * 3)).isTrue();
+            assertThat(buffer.offer(lap * 3 + 1)).isTrue();
+            assertThat(buffer.offer(lap * 3 + 2)).isTrue();
+            for (int i = 0; i < 3; i++) {
+                assertThat(buffer.poll()).isEqualTo(next++);
+            }
+        }
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void deliversEveryItemExactlyOnceWithConcurrentProducers() throws Exception {
+        ExchangeRingBuffer<Long> buffer = new ExchangeRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] lastPerProducer = new long[producers];
+        for (int p = 0; p < producers; p++) {
+            lastPerProducer[p] = (long) p * perProducer - 1;
+        }
+        int received = 0;
+        int outOfOrder = 0;
+        start.countDown();
+        while (received < producers * perProducer) {
+            Long item = buffer.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            // Items from one producer must come out in the order they were offered,
+            // which together with the count also rules out duplicates and losses
+            int producer = (int) (item / perProducer);
+            if (item != lastPerProducer[producer] + 1) {
+                outOfOrder++;
+            }
+            lastPerProducer[producer] = item;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(outOfOrder).isZero();
+        for (int p = 0; p < producers; p++) {
+            assertThat(lastPerProducer[p]).isEqualTo((long) (p + 1) * perProducer - 1);
+        }
+        assertThat(buffer.poll()).isNull();
+    }
+}
@@ -130,7 +130,7 @@ const FlowchartEditorContent: React.FC<FlowchartEditorProps> = ({
         }));
     }, [setEdges]);
 
-    const { runTransaction, transactionDetails, stopTransaction } = useTransactionRunner({
+    const { runTransaction, runTransactionGraph, transactionDetails, stopTransaction } = useTransactionRunner({
         edges: memoizedEdges as TransactionEdge[],
         updateEdgeStatus: (edgeId: string, status: string) => updateEdgeStatus(edgeId, status, runTransaction),
         setEdgeRunning,
@@ -180,49 +180,15 @@ const FlowchartEditorContent: React.FC<FlowchartEditorProps> = ({
         }
     }, [transactionDetails, memoizedNodes, memoizedEdges]);
 
+    // The backend orders the selected edges by their dependencies and runs
+    // independent branches concurrently
     const handlePlayTransaction = useCallback(async (edgeIds: string[]) => {
         try {
-            const selectedEdges = edges.filter(e => edgeIds.includes(e.id));
-            console.log('Selected edges:', selectedEdges.map(e => `${e.source}->${e.target}`));
-            
-            // Find all distinct paths starting from source nodes
-            const findFullPath = (startEdge: Edge<TransactionEdgeData>): Edge<TransactionEdgeData>[] => {
-                const path: Edge<TransactionEdgeData>[] = [startEdge];
-                let currentTarget = startEdge.target;
-                
-                // Keep adding edges until we can't find a next edge
-                while (true) {
-                    const nextEdge = selectedEdges.find(e => e.source === currentTarget);
-                    if (!nextEdge) break;
-                    path.push(nextEdge);
-                    currentTarget = nextEdge.target;
-                }
-                
-                return path;
-            };
-
-            // Find all source edges (edges whose source nodes have no incoming selected edges)
-            const sourceEdges = selectedEdges.filter(edge => 
-                !selectedEdges.some(e => e.target === edge.source)
-            );
-            
-            console.log('Source edges found:', sourceEdges.map(e => `${e.source}->${e.target}`));
-
-            // Process each complete path
-            for (const sourceEdge of sourceEdges) {
-                const pathEdges = findFullPath(sourceEdge);
-                
-                // Run each edge in the path sequentially
-                for (const edge of pathEdges) {
-                    if (edge.data?.transactionId) {
-                        await runTransaction(edge.data.transactionId);
-                    }
-                }
-            }
+            await runTransactionGraph(edgeIds, nodes);
         } catch (error) {
             console.error('Error running transactions:', error);
         }
-    }, [edges, runTransaction]);
+    }, [nodes, runTransactionGraph]);
 
     // Initialize nodes and edges
     useEffect(() => {
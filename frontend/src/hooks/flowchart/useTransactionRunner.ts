@@ -4,6 +4,8 @@ import { TransactionEdge, TransactionDetails, EdgeStatus } from '../../component
 import { Edge } from 'reactflow';
 import { TransactionEdgeData } from '../../components/FlowchartEditor/types';
 
+const GRAPH_API_URL = 'http://localhost:8080/api/flowchart';
+
 interface UseTransactionRunnerProps {
     edges: Edge<TransactionEdgeData>[];
     updateEdgeStatus: (edgeId: string, status: string) => void;
@@ -109,8 +111,92 @@ export const useTransactionRunner = ({
         }
     }, [edges, updateEdgeStatus, setEdgeRunning, stopTransaction, onApiCall]);
 
+    // Runs the selected edges as one dependency graph on the backend: independent
+    // branches execute concurrently and upstream responses feed downstream requests.
+    const runTransactionGraph = useCallback(async (edgeIds: string[], nodes: { id: string; data: { label: string } }[], maxParallelism?: number) => {
+        const graphEdges = edges.filter(e => edgeIds.includes(e.id) && e.data);
+        if (graphEdges.length === 0) return null;
+
+        graphEdges.forEach(edge => {
+            setEdgeRunning(edge.id, true);
+            updateEdgeStatus(edge.id, 'running');
+        });
+
+        try {
+            const response = await axios.post(`${GRAPH_API_URL}/execute`, {
+                nodes: nodes.map(n => ({ id: n.id, label: n.data.label })),
+                edges: graphEdges.map(e => ({
+                    id: e.id,
+                    source: e.source,
+                    target: e.target,
+                    transactionId: e.data?.transactionId,
+                    operation: e.data?.operation,
+                    path: e.data?.path,
+                    requestBody: e.data?.requestBody,
+                    headers: e.data?.headers
+                })),
+                maxParallelism
+            });
+
+            const result = response.data;
+            result.edges.forEach((edgeResult: any) => {
+                updateEdgeStatus(edgeResult.edgeId,
+                    edgeResult.status === 'success' ? 'success' :
+                    edgeResult.status === 'skipped' ? 'stopped' : 'failed');
+
+                if (onApiCall) {
+                    onApiCall(
+                        edgeResult.method,
+                        edgeResult.url,
+                        { dependsOn: edgeResult.dependsOn },
+                        {
+                            status: edgeResult.httpStatus,
+                            body: edgeResult.responseBody,
+                            durationMillis: edgeResult.durationMillis
+                        }
+                    );
+                }
+            });
+
+            // Show the last edge of the critical path, with every edge's response alongside
+            const lastResult = result.edges.find((r: any) => r.edgeId === result.criticalPath[result.criticalPath.length - 1]);
+            const lastEdge = graphEdges.find(e => e.id === lastResult?.edgeId);
+            if (lastResult && lastEdge?.data) {
+                setTransactionDetails({
+                    id: lastEdge.data.transactionId,
+                    request: {
+                        method: lastResult.method || lastEdge.data.operation,
+                        path: lastResult.url || lastEdge.data.path,
+                        headers: lastEdge.data.headers || {},
+                        body: lastEdge.data.requestBody
+                    },
+                    response: {
+                        status: lastResult.httpStatus,
+                        headers: {},
+                        body: lastResult.responseBody
+                    },
+                    loading: false,
+                    allResponses: result.edges.map((r: any) => ({
+                        path: r.url || '',
+                        status: r.httpStatus,
+                        headers: {},
+                        body: r.responseBody ?? { status: r.status, error: r.error }
+                    }))
+                });
+            }
+            return result;
+        } catch (error) {
+            console.error('Transaction graph failed:', error);
+            graphEdges.forEach(edge => updateEdgeStatus(edge.id, 'failed'));
+            return null;
+        } finally {
+            graphEdges.forEach(edge => setEdgeRunning(edge.id, false));
+        }
+    }, [edges, updateEdgeStatus, setEdgeRunning, onApiCall]);
+
     return {
         runTransaction,
+        runTransactionGraph,
         stopTransaction,
         transactionDetails,
         runningTransactions